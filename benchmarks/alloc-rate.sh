@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Ước lượng allocation rate (MB/s) của một JVM đang chạy từ jstat, không cần agent
+#   benchmarks/alloc-rate.sh <pid> <seconds>
+# Mỗi giây đọc EU (eden used); eden giảm = vừa có young GC → cộng phần còn lại của eden trước GC
+set -euo pipefail
+
+PID="$1"
+SECONDS_TO_SAMPLE="${2:-60}"
+
+jstat -gc "$PID" 1000 "$SECONDS_TO_SAMPLE" | awk '
+NR == 1 {
+    for (i = 1; i <= NF; i++) {
+        if ($i == "EC") ec = i
+        if ($i == "EU") eu = i
+    }
+    next
+}
+{
+    capacity = $ec; used = $eu
+    if (NR > 2) {
+        if (used >= prev) {
+            allocated += used - prev
+        } else {
+            allocated += (prevCapacity - prev) + used
+        }
+        samples++
+    }
+    prev = used; prevCapacity = capacity
+}
+END {
+    if (samples == 0) { print "alloc_rate_mb_s=NaN"; exit }
+    printf "alloc_rate_mb_s=%.1f\n", allocated / 1024 / samples
+}'
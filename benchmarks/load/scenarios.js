@@ -0,0 +1,138 @@
+// Load test các API contact / severity / log-entries (k6)
+// Chạy qua benchmarks/run-load-test.sh hoặc trực tiếp:
+//   BASE_URL=http://localhost:8002 BENCH_USER=admin BENCH_PASS=... k6 run benchmarks/load/scenarios.js
+// Chi tiết: docs/BENCHMARK_MODULE.md
+
+import http from "k6/http";
+import { check, fail } from "k6";
+
+const BASE_URL = __ENV.BASE_URL || "http://localhost:8002";
+const DURATION = __ENV.DURATION || "2m";
+const RATE = parseInt(__ENV.RATE || "50", 10);
+
+const KEYWORDS = ["nguyen", "Nguyễn Văn", "tran thi", "duc", "hung", "0912", "user12345", "ng"];
+const FULL_NAMES = ["Lê Minh", "pham thu", "Hoàng", "vu quoc"];
+
+// Mỗi endpoint một scenario với tải cố định (open model) → p99 không bị "che" bởi số VU giới hạn
+function scenario(exec, ratePerSecond, extra = {}) {
+  return Object.assign({
+    executor: "constant-arrival-rate",
+    exec,
+    rate: ratePerSecond,
+    timeUnit: "1s",
+    duration: DURATION,
+    preAllocatedVUs: Math.max(10, ratePerSecond * 2),
+    maxVUs: Math.max(50, ratePerSecond * 10),
+    tags: { endpoint: exec },
+  }, extra);
+}
+
+export const options = {
+  scenarios: {
+    contactsList: scenario("contactsList", RATE),
+    contactsKeyword: scenario("contactsKeyword", RATE),
+    contactsFilter: scenario("contactsFilter", Math.ceil(RATE / 2)),
+    contactsCursor: scenario("contactsCursor", Math.ceil(RATE / 2)),
+    severityList: scenario("severityList", RATE),
+    severityActive: scenario("severityActive", RATE * 2),
+    logStatistics: scenario("logStatistics", Math.ceil(RATE / 5)),
+    logFilter: scenario("logFilter", Math.ceil(RATE / 5)),
+    contactsExport: scenario("contactsExport", 1, { timeUnit: "30s", preAllocatedVUs: 2, maxVUs: 4 }),
+  },
+  summaryTrendStats: ["avg", "p(50)", "p(95)", "p(99)", "max"],
+  thresholds: {
+    http_req_failed: ["rate<0.01"],
+  },
+};
+
+// Threshold rỗng theo từng scenario → k6 in p50/p95/p99 và throughput riêng cho từng endpoint trong summary
+for (const name of Object.keys(options.scenarios)) {
+  options.thresholds[`http_req_duration{scenario:${name}}`] = [];
+  options.thresholds[`http_reqs{scenario:${name}}`] = [];
+}
+
+export function setup() {
+  if (__ENV.BENCH_TOKEN) {
+    return { token: __ENV.BENCH_TOKEN };
+  }
+  const response = http.post(`${BASE_URL}/api/auth/login`,
+    JSON.stringify({ username: __ENV.BENCH_USER || "admin", password: __ENV.BENCH_PASS || "admin" }),
+    { headers: { "Content-Type": "application/json" } });
+  const token = response.json("token");
+  if (!token) {
+    fail(`Login failed: ${response.status} ${response.body}`);
+  }
+  return { token };
+}
+
+function get(data, path, name) {
+  const response = http.get(`${BASE_URL}${path}`, {
+    headers: { Authorization: `Bearer ${data.token}` },
+    tags: { name },
+  });
+  check(response, { "status 200": r => r.status === 200 });
+  return response;
+}
+
+function pick(values) {
+  return values[Math.floor(Math.random() * values.length)];
+}
+
+function randomPage(maxPage) {
+  return 1 + Math.floor(Math.random() * maxPage);
+}
+
+export function contactsList(data) {
+  get(data, `/api/contacts?page=${randomPage(50)}&limit=20&sortDir=desc&sortKey=id`, "GET /api/contacts");
+}
+
+export function contactsKeyword(data) {
+  get(data, `/api/contacts?page=1&limit=20&keyword=${encodeURIComponent(pick(KEYWORDS))}`, "GET /api/contacts?keyword");
+}
+
+export function contactsFilter(data) {
+  get(data, `/api/contacts/filter?page=1&limit=20&isActive=true&fullName=${encodeURIComponent(pick(FULL_NAMES))}`,
+    "GET /api/contacts/filter");
+}
+
+// Đi 10 trang liên tiếp bằng cursor như người dùng cuộn danh sách
+export function contactsCursor(data) {
+  let cursor = "";
+  for (let i = 0; i < 10; i++) {
+    const response = get(data, `/api/contacts?cursor=${encodeURIComponent(cursor)}&limit=50&sortKey=fullName&sortDir=asc`,
+      "GET /api/contacts?cursor");
+    cursor = response.json("data.nextCursor");
+    if (!cursor) break;
+  }
+}
+
+export function severityList(data) {
+  get(data, "/api/sys-severity?page=1&limit=20&sort_dir=desc&sort_key=priority_level", "GET /api/sys-severity");
+}
+
+export function severityActive(data) {
+  get(data, "/api/sys-severity/active", "GET /api/sys-severity/active");
+}
+
+export function logStatistics(data) {
+  const days = pick([1, 7, 30]);
+  const to = new Date();
+  const from = new Date(to.getTime() - days * 24 * 3600 * 1000);
+  const fmt = d => d.toISOString().substring(0, 19);
+  get(data, `/api/log-entries/statistics?occurredAtFrom=${fmt(from)}&occurredAtTo=${fmt(to)}`, "GET /api/log-entries/statistics");
+}
+
+export function logFilter(data) {
+  get(data, `/api/log-entries/filter?page=${randomPage(20)}&limit=20&severity=${pick(["CRITICAL", "MAJOR"])}&sort_dir=desc&sort_key=occurred_at`,
+    "GET /api/log-entries/filter");
+}
+
+export function contactsExport(data) {
+  const response = http.get(`${BASE_URL}/api/contacts/export`, {
+    headers: { Authorization: `Bearer ${data.token}` },
+    tags: { name: "GET /api/contacts/export" },
+    timeout: "300s",
+    responseType: "none",
+  });
+  check(response, { "status 200": r => r.status === 200 });
+}
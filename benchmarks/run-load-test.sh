@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+# Load test tái lập được trên một máy Linux, không cần mạng:
+#   PostgreSQL local (initdb tạm) → backend jar → seed 1M contacts / 10M logs → k6 → allocation rate
+#
+#   BACKEND_JAR=../trucca-backend/target/trucca-backend.jar benchmarks/run-load-test.sh
+#
+# Yêu cầu: initdb/pg_ctl/psql (PostgreSQL 14+, có contrib cho pg_trgm/unaccent), JDK 17+ (jstat), k6
+# Chi tiết: docs/BENCHMARK_MODULE.md
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="${WORK_DIR:-$ROOT/benchmarks/.work}"
+PG_PORT="${PG_PORT:-55432}"
+APP_PORT="${APP_PORT:-8002}"
+CONTACTS="${CONTACTS:-1000000}"
+LOGS="${LOGS:-10000000}"
+DURATION="${DURATION:-2m}"
+RATE="${RATE:-50}"
+RESEED="${RESEED:-false}"
+BACKEND_JAR="${BACKEND_JAR:?Set BACKEND_JAR to the backend Spring Boot jar}"
+RESULT_DIR="$ROOT/benchmarks/results/$(date +%Y%m%d-%H%M%S)"
+
+mkdir -p "$WORK" "$RESULT_DIR"
+
+cleanup() {
+    [[ -n "${APP_PID:-}" ]] && kill "$APP_PID" 2>/dev/null && wait "$APP_PID" 2>/dev/null || true
+    pg_ctl -D "$WORK/pgdata" stop -m fast >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+# 1. PostgreSQL tạm - dữ liệu giữ lại giữa các lần chạy, chỉ seed lại khi RESEED=true
+if [[ ! -d "$WORK/pgdata" ]]; then
+    initdb -D "$WORK/pgdata" -U postgres --auth=trust --encoding=UTF8 >/dev/null
+    RESEED=true
+fi
+pg_ctl -D "$WORK/pgdata" -o "-p $PG_PORT -c shared_buffers=1GB -c max_wal_size=4GB" -l "$WORK/postgres.log" start >/dev/null
+psql -h localhost -p "$PG_PORT" -U postgres -tc "SELECT 1 FROM pg_database WHERE datname = 'trucca_bench'" | grep -q 1 \
+    || psql -h localhost -p "$PG_PORT" -U postgres -c "CREATE DATABASE trucca_bench" >/dev/null
+
+# 2. Backend - cùng JVM flags cho mọi lần chạy để so sánh được
+java -Xms2g -Xmx2g -XX:+UseG1GC \
+    -jar "$BACKEND_JAR" \
+    --server.port="$APP_PORT" \
+    --spring.datasource.url="jdbc:postgresql://localhost:$PG_PORT/trucca_bench" \
+    --spring.datasource.username=postgres \
+    --spring.datasource.password= \
+    > "$RESULT_DIR/backend.log" 2>&1 &
+APP_PID=$!
+
+echo "Waiting for backend on port $APP_PORT..."
+HEALTHY=false
+for _ in $(seq 1 120); do
+    if curl -sf "http://localhost:$APP_PORT/actuator/health" >/dev/null; then
+        HEALTHY=true
+        break
+    fi
+    if ! kill -0 "$APP_PID" 2>/dev/null; then
+        break   # backend đã thoát (sai jar, cổng bận...) → không chờ hết 120s
+    fi
+    sleep 1
+done
+if [[ "$HEALTHY" != "true" ]]; then
+    echo "Backend did not become healthy on port $APP_PORT. Last lines of $RESULT_DIR/backend.log:" >&2
+    tail -n 50 "$RESULT_DIR/backend.log" >&2 || true
+    exit 1
+fi
+
+# 3. Seed (sau khi backend đã tạo schema)
+if [[ "$RESEED" == "true" ]]; then
+    echo "Seeding $CONTACTS contacts / $LOGS log entries..."
+    psql -h localhost -p "$PG_PORT" -U postgres -d trucca_bench -v ON_ERROR_STOP=1 \
+        -v contacts="$CONTACTS" -v logs="$LOGS" -f "$ROOT/benchmarks/seed/seed_bench.sql"
+    psql -h localhost -p "$PG_PORT" -U postgres -d trucca_bench -v ON_ERROR_STOP=1 \
+        -f "$ROOT/db/contact_search_index.sql"
+fi
+
+# 4. Load test + allocation rate đo song song trong cùng khoảng thời gian
+DURATION_SECONDS=$(( $(echo "$DURATION" | sed -E 's/m$/*60/; s/s$//') ))
+"$ROOT/benchmarks/alloc-rate.sh" "$APP_PID" "$DURATION_SECONDS" > "$RESULT_DIR/alloc-rate.txt" &
+ALLOC_PID=$!
+
+BASE_URL="http://localhost:$APP_PORT" DURATION="$DURATION" RATE="$RATE" \
+    k6 run --summary-export "$RESULT_DIR/k6-summary.json" "$ROOT/benchmarks/load/scenarios.js" \
+    | tee "$RESULT_DIR/k6-output.txt"
+
+wait "$ALLOC_PID" || true
+curl -sf "http://localhost:$APP_PORT/actuator/prometheus" > "$RESULT_DIR/prometheus.txt" || true
+
+echo
+echo "Results: $RESULT_DIR"
+cat "$RESULT_DIR/alloc-rate.txt"
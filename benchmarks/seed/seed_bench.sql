@@ -0,0 +1,116 @@
+-- =========================================
+-- BENCHMARK SEED: 1M contacts + 10M log_entries
+-- Mục đích: Dữ liệu tái lập được cho load test (docs/BENCHMARK_MODULE.md)
+-- Ngày cập nhật: 2026-10-17
+-- =========================================
+
+-- ⚠️ CHỈ chạy trên database benchmark (trucca_bench) - script XÓA dữ liệu contacts, log_entries và log_entry_stats_rollup
+-- Schema do backend tạo khi khởi động (ddl-auto) → chạy sau khi backend đã lên lần đầu
+--
+-- psql -U postgres -d trucca_bench -v contacts=1000000 -v logs=10000000 -f benchmarks/seed/seed_bench.sql
+
+\if :{?contacts}
+\else
+\set contacts 1000000
+\endif
+\if :{?logs}
+\else
+\set logs 10000000
+\endif
+
+-- Biến psql không được thay thế bên trong DO $$ ... $$ → truyền qua setting của session
+SELECT set_config('bench.logs', :'logs', false);
+
+-- Cùng seed → cùng dữ liệu ở mọi lần chạy
+SELECT setseed(0.42);
+
+TRUNCATE TABLE log_entries RESTART IDENTITY CASCADE;
+TRUNCATE TABLE log_entry_stats_rollup;
+TRUNCATE TABLE contacts RESTART IDENTITY CASCADE;
+
+-- =========================================
+-- 1. CONTACTS - họ tên tiếng Việt có dấu
+-- =========================================
+INSERT INTO contacts (full_name, department_id, email, phone, is_active, notes, created_at, updated_at)
+SELECT
+    ho || ' ' || dem || ' ' || ten,
+    CASE WHEN array_length(dept.ids, 1) IS NULL THEN NULL
+         ELSE dept.ids[1 + (g % array_length(dept.ids, 1))] END,
+    'user' || g || '@mobifone.vn',
+    '09' || lpad(((g * 7919) % 100000000)::TEXT, 8, '0'),
+    (g % 10) <> 0,
+    NULL,
+    now() - (g % 1000) * INTERVAL '1 hour',
+    now() - (g % 1000) * INTERVAL '1 hour'
+FROM generate_series(1, :contacts) AS g
+CROSS JOIN LATERAL (
+    SELECT
+        (ARRAY['Nguyễn','Trần','Lê','Phạm','Hoàng','Huỳnh','Phan','Vũ','Võ','Đặng','Bùi','Đỗ','Hồ','Ngô','Dương','Lý'])[1 + (g % 16)] AS ho,
+        (ARRAY['Văn','Thị','Hữu','Đức','Minh','Thanh','Quốc','Ngọc','Xuân','Thu'])[1 + ((g / 16) % 10)] AS dem,
+        (ARRAY['An','Bình','Cường','Dũng','Giang','Hà','Hải','Hằng','Hùng','Khánh','Lan','Long','Mai','Nam','Phong',
+               'Phương','Quân','Sơn','Tâm','Thảo','Trang','Trung','Tuấn','Việt','Yến'])[1 + ((g / 160) % 25)] AS ten
+) AS name
+CROSS JOIN (SELECT array_agg(id ORDER BY id) AS ids FROM sys_department) AS dept;
+
+-- =========================================
+-- 2. LOG_ENTRIES - 30 ngày gần nhất, phân bố severity lệch như thực tế
+-- =========================================
+DO $$
+DECLARE
+    total BIGINT := current_setting('bench.logs')::BIGINT;
+    chunk BIGINT := 1000000;
+    done BIGINT := 0;
+BEGIN
+    WHILE done < total LOOP
+        INSERT INTO log_entries (severity, occurred_at, system_name, host_name, host_ip, resource_name,
+                                 alarm_name, condition_log, event_type, event_source, event_detail,
+                                 created_at, updated_at)
+        SELECT
+            CASE WHEN r < 0.02 THEN 'DOWN' WHEN r < 0.10 THEN 'CRITICAL' WHEN r < 0.35 THEN 'MAJOR' ELSE 'MINOR' END,
+            ts,
+            'SYSTEM-' || lpad((g % 200)::TEXT, 3, '0'),
+            'host-' || (g % 5000),
+            '10.' || ((g / 65536) % 256) || '.' || ((g / 256) % 256) || '.' || (g % 256),
+            (ARRAY['database','disk','cpu','memory','network','service'])[1 + (g % 6)],
+            (ARRAY['DB_CONNECTION_ALARM','DISK_FULL','CPU_HIGH','MEM_HIGH','LINK_DOWN','SERVICE_DOWN'])[1 + (g % 6)],
+            (ARRAY['connection timeout after 30s','disk usage 95%','cpu load 98%','out of memory','link down','connection refused'])[1 + (g % 6)],
+            'ALARM',
+            'BENCH',
+            'Benchmark event #' || g,
+            ts,
+            ts
+        FROM (
+            SELECT g, random() AS r, now() - random() * INTERVAL '30 days' AS ts
+            FROM generate_series(done + 1, LEAST(done + chunk, total)) AS g
+        ) AS src;
+
+        done := LEAST(done + chunk, total);
+        RAISE NOTICE 'log_entries: % / %', done, total;
+        COMMIT;
+    END LOOP;
+END $$;
+
+-- =========================================
+-- LOG STATS ROLLUP (docs/LOG_ENTRIES_STATS_ROLLUP.md)
+-- =========================================
+-- Seed ghi thẳng vào log_entries, không qua LogEntryStatsRollupService → tính lại rollup bằng GROUP BY,
+-- nếu không /api/log-entries/stats đọc bảng rỗng và benchmark stats đo sai.
+-- Giữ đúng thời hạn lưu như job dọn hằng đêm: phút 2 ngày, giờ 90 ngày, ngày vĩnh viễn.
+INSERT INTO log_entry_stats_rollup (granularity, bucket_start, severity, system_name, count)
+SELECT g.code, date_trunc(g.unit, l.occurred_at), l.severity, coalesce(l.system_name, ''), COUNT(*)
+FROM log_entries l
+CROSS JOIN (VALUES ('m', 'minute', INTERVAL '2 days'),
+                   ('h', 'hour', INTERVAL '90 days'),
+                   ('d', 'day', NULL::INTERVAL)) AS g (code, unit, retention)
+WHERE g.retention IS NULL OR l.occurred_at >= now() - g.retention
+GROUP BY g.code, date_trunc(g.unit, l.occurred_at), l.severity, coalesce(l.system_name, '');
+
+ANALYZE contacts;
+ANALYZE log_entries;
+ANALYZE log_entry_stats_rollup;
+
+SELECT 'contacts' AS table_name, COUNT(*) AS rows FROM contacts
+UNION ALL
+SELECT 'log_entries', COUNT(*) FROM log_entries
+UNION ALL
+SELECT 'log_entry_stats_rollup', COUNT(*) FROM log_entry_stats_rollup;
@@ -47,6 +47,9 @@ export const API_ENDPOINTS = {
     EXPORT: `${API_BASE}/contacts/export`,
     IMPORT: `${API_BASE}/contacts/import`,
     TEMPLATE: `${API_BASE}/contacts/template`,
+    JOBS: (type: "import" | "export") => `${API_BASE}/contacts/jobs?type=${type}`,
+    JOB_DETAIL: (id: string) => `${API_BASE}/contacts/jobs/${id}`,
+    JOB_RESULT: (id: string) => `${API_BASE}/contacts/jobs/${id}/result`,
   },
 
   // Group Contacts (Nhóm liên hệ)
@@ -75,6 +75,14 @@ interface ContactFormData {
   notes: string;
 }
 
+interface ImportResult {
+  totalRows: number;
+  importedRows: number;
+  failedRows: number;
+  durationMs: number;
+  errors: { row: number; message: string }[];
+}
+
 interface ApiResponse {
   success: boolean;
   data: {
@@ -110,6 +118,8 @@ export default function ConfigContacts() {
   const [editingItem, setEditingItem] = useState<Contact | null>(null);
   const [deletingId, setDeletingId] = useState<number | null>(null);
   const [selectedItems, setSelectedItems] = useState<Set<number>>(new Set());
+  const [isExporting, setIsExporting] = useState(false);
+  const [importResult, setImportResult] = useState<ImportResult | null>(null);
   const fileInputRef = useRef<HTMLInputElement>(null);
   const [formData, setFormData] = useState<ContactFormData>({
     fullName: "",
@@ -287,7 +297,12 @@ export default function ConfigContacts() {
     },
     onSuccess: (data) => {
       queryClient.invalidateQueries({ queryKey: ["contacts"] });
-      toast({ title: "Thành công", description: data.message || "Đã import dữ liệu" });
+      const result: ImportResult = data.data;
+      if (result.failedRows > 0) {
+        setImportResult(result);
+      } else {
+        toast({ title: "Thành công", description: `Đã import ${result.importedRows}/${result.totalRows} dòng` });
+      }
     },
     onError: (error: Error) => {
       toast({ title: "Lỗi", description: error.message, variant: "destructive" });
@@ -395,9 +410,37 @@ export default function ConfigContacts() {
     }
   };
 
+  // Export chạy bằng job nền: file lớn không bị nginx cắt ở proxy_read_timeout
   const handleExport = async () => {
+    setIsExporting(true);
     try {
-      const response = await fetchWithAuth(API_ENDPOINTS.CONTACTS.EXPORT);
+      const submitResponse = await fetchWithAuth(API_ENDPOINTS.CONTACTS.JOBS("export"), {
+        method: "POST",
+      });
+
+      if (!submitResponse.ok) {
+        const error = await submitResponse.json().catch(() => ({}));
+        throw new Error(error.message || "Failed to export");
+      }
+
+      const jobId: string = (await submitResponse.json()).data.id;
+      toast({ title: "Đang xuất dữ liệu", description: "File sẽ được tải về khi xuất xong" });
+
+      let status = "QUEUED";
+      while (status === "QUEUED" || status === "RUNNING") {
+        await new Promise(resolve => setTimeout(resolve, 2000));
+        const statusResponse = await fetchWithAuth(API_ENDPOINTS.CONTACTS.JOB_DETAIL(jobId));
+        if (!statusResponse.ok) {
+          throw new Error("Failed to export");
+        }
+        const job = (await statusResponse.json()).data;
+        status = job.status;
+        if (status === "FAILED") {
+          throw new Error(job.error || "Failed to export");
+        }
+      }
+
+      const response = await fetchWithAuth(API_ENDPOINTS.CONTACTS.JOB_RESULT(jobId));
 
       if (!response.ok) {
         throw new Error("Failed to export");
@@ -416,6 +459,8 @@ export default function ConfigContacts() {
       toast({ title: "Thành công", description: "Đã xuất dữ liệu" });
     } catch (error: any) {
       toast({ title: "Lỗi", description: error.message, variant: "destructive" });
+    } finally {
+      setIsExporting(false);
     }
   };
 
@@ -510,7 +555,7 @@ export default function ConfigContacts() {
                 className="hidden"
                 onChange={handleImport}
               />
-              <Button variant="outline" size="sm" onClick={handleExport}>
+              <Button variant="outline" size="sm" onClick={handleExport} disabled={isExporting}>
                 <Download className="h-4 w-4 mr-2" />
                 Export
               </Button>
@@ -757,6 +802,44 @@ export default function ConfigContacts() {
         </DialogContent>
       </Dialog>
 
+      {/* Import Result Dialog */}
+      <Dialog open={importResult !== null} onOpenChange={(open) => !open && setImportResult(null)}>
+        <DialogContent className="max-w-2xl">
+          <DialogHeader>
+            <DialogTitle>Kết quả import</DialogTitle>
+            <DialogDescription>
+              Đã import {importResult?.importedRows ?? 0}/{importResult?.totalRows ?? 0} dòng,{" "}
+              {importResult?.failedRows ?? 0} dòng lỗi.
+              {importResult && importResult.failedRows > importResult.errors.length &&
+                ` Hiển thị ${importResult.errors.length} lỗi đầu tiên.`}
+            </DialogDescription>
+          </DialogHeader>
+          <div className="max-h-96 overflow-y-auto">
+            <Table>
+              <TableHeader>
+                <TableRow>
+                  <TableHead className="w-24">Dòng</TableHead>
+                  <TableHead>Lỗi</TableHead>
+                </TableRow>
+              </TableHeader>
+              <TableBody>
+                {importResult?.errors.map((error, index) => (
+                  <TableRow key={index}>
+                    <TableCell>{error.row}</TableCell>
+                    <TableCell>{error.message}</TableCell>
+                  </TableRow>
+                ))}
+              </TableBody>
+            </Table>
+          </div>
+          <DialogFooter>
+            <Button type="button" variant="outline" onClick={() => setImportResult(null)}>
+              Đóng
+            </Button>
+          </DialogFooter>
+        </DialogContent>
+      </Dialog>
+
       {/* Delete Dialog */}
       <AlertDialog open={isDeleteDialogOpen} onOpenChange={setIsDeleteDialogOpen}>
         <AlertDialogContent>
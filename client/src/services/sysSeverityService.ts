@@ -8,6 +8,7 @@ import { API_ENDPOINTS, getApiUrl } from '@/lib/api-endpoints';
 import {
   SysSeverity,
   SysSeverityRequest,
+  SysSeverityImportResult,
   PaginatedResponse,
   ApiResponse,
   SeverityListParams,
@@ -149,7 +150,7 @@ export const sysSeverityService = {
   /**
    * Import from Excel
    */
-  importFromExcel: async (file: File): Promise<ApiResponse<SysSeverity[]>> => {
+  importFromExcel: async (file: File): Promise<ApiResponse<SysSeverityImportResult>> => {
     const formData = new FormData();
     formData.append('file', file);
 
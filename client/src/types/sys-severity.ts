@@ -91,6 +91,17 @@ export interface ApiResponse<T> {
   statusCode: number;
 }
 
+/**
+ * Import Result (POST /api/sys-severity/import)
+ */
+export interface SysSeverityImportResult {
+  totalRows: number;
+  importedRows: number;
+  failedRows: number;
+  durationMs: number;
+  errors: { row: number; message: string }[];
+}
+
 /**
  * List Query Parameters
  */
@@ -0,0 +1,122 @@
+-- =========================================
+-- CONTACT SEARCH INDEX
+-- Mục đích: Tìm kiếm contacts không phân biệt dấu, dùng trigram index thay cho LIKE '%x%' quét toàn bảng
+-- Ngày cập nhật: 2026-10-17
+-- Chi tiết: docs/CONTACT_SEARCH_INDEX.md
+-- =========================================
+
+-- Có thể chạy lại nhiều lần
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- =========================================
+-- 1. HÀM CHUẨN HÓA (bỏ dấu + lowercase)
+-- =========================================
+-- unaccent() là STABLE (phụ thuộc dictionary) nên không dùng trực tiếp được trong generated column / index.
+-- Bọc lại với dictionary cố định và khai báo IMMUTABLE.
+-- unaccent.rules mặc định đã có đ → d, Đ → D.
+CREATE OR REPLACE FUNCTION f_search_fold(input TEXT)
+RETURNS TEXT
+LANGUAGE sql
+IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+    SELECT lower(public.unaccent('public.unaccent'::regdictionary, input))
+$$;
+
+-- =========================================
+-- 2. TÊN ĐƠN VỊ (denormalize)
+-- =========================================
+-- Generated column không JOIN được sang sys_department → giữ bản đã chuẩn hóa của tên đơn vị trên chính dòng contact.
+-- Trigger BEFORE chạy trước khi PostgreSQL tính generated column → search_text luôn thấy giá trị mới.
+
+ALTER TABLE contacts DROP COLUMN IF EXISTS search_text;
+ALTER TABLE contacts DROP COLUMN IF EXISTS full_name_search;
+ALTER TABLE contacts ADD COLUMN IF NOT EXISTS department_search TEXT;
+
+-- Contact đổi đơn vị (kể cả FK ON DELETE SET NULL khi xóa đơn vị)
+CREATE OR REPLACE FUNCTION f_contacts_department_search()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.department_search := (SELECT f_search_fold(d.name) FROM sys_department d WHERE d.id = NEW.department_id);
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_contacts_department_search ON contacts;
+CREATE TRIGGER trg_contacts_department_search
+    BEFORE INSERT OR UPDATE OF department_id ON contacts
+    FOR EACH ROW EXECUTE FUNCTION f_contacts_department_search();
+
+-- Đơn vị đổi tên → cập nhật các contact thuộc đơn vị đó
+CREATE OR REPLACE FUNCTION f_sys_department_search_sync()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    UPDATE contacts SET department_search = f_search_fold(NEW.name) WHERE department_id = NEW.id;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_sys_department_search_sync ON sys_department;
+CREATE TRIGGER trg_sys_department_search_sync
+    AFTER UPDATE OF name ON sys_department
+    FOR EACH ROW WHEN (OLD.name IS DISTINCT FROM NEW.name)
+    EXECUTE FUNCTION f_sys_department_search_sync();
+
+-- Dữ liệu hiện có
+UPDATE contacts c SET department_search = f_search_fold(d.name)
+FROM sys_department d
+WHERE d.id = c.department_id;
+
+-- =========================================
+-- 3. CỘT CHUẨN HÓA (generated column)
+-- =========================================
+-- PostgreSQL tự tính lại khi INSERT/UPDATE → create, edit, copy, import (JDBC batch) đều không cần thêm code.
+-- Xóa contact thì dòng index bị xóa theo.
+
+-- Dùng cho keyword: họ tên + email + số điện thoại + tên đơn vị
+ALTER TABLE contacts ADD COLUMN search_text TEXT
+    GENERATED ALWAYS AS (
+        f_search_fold(coalesce(full_name, '') || ' ' || coalesce(email, '') || ' ' || coalesce(phone, ''))
+            || ' ' || coalesce(department_search, '')
+    ) STORED;
+
+-- Dùng cho filter fullName
+ALTER TABLE contacts ADD COLUMN full_name_search TEXT
+    GENERATED ALWAYS AS (f_search_fold(full_name)) STORED;
+
+-- =========================================
+-- 4. INDEX
+-- =========================================
+
+-- Trigram (GIN): LIKE '%x%' với x >= 3 ký tự, và LIKE 'x%' / '% x%' (đầu từ) với keyword 1-2 ký tự
+CREATE INDEX IF NOT EXISTS idx_contacts_search_text_trgm ON contacts USING gin (search_text gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_contacts_full_name_search_trgm ON contacts USING gin (full_name_search gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_contacts_email_lower_trgm ON contacts USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_contacts_phone_trgm ON contacts USING gin (phone gin_trgm_ops);
+
+-- Keyword ngắn đã chuyển sang khớp đầu từ trên search_text → prefix B-tree trên họ tên không còn dùng
+DROP INDEX IF EXISTS idx_contacts_full_name_search_prefix;
+
+ANALYZE contacts;
+
+-- =========================================
+-- KIỂM TRA
+-- =========================================
+-- SELECT id, full_name, search_text FROM contacts ORDER BY id LIMIT 5;
+--
+-- EXPLAIN ANALYZE
+-- SELECT id, full_name FROM contacts
+-- WHERE search_text LIKE '%' || f_search_fold('Nguyen') || '%'
+-- ORDER BY id DESC LIMIT 10;
+-- → phải thấy "Bitmap Index Scan on idx_contacts_search_text_trgm"
+--
+-- EXPLAIN ANALYZE
+-- SELECT id, full_name FROM contacts
+-- WHERE search_text LIKE f_search_fold('an') || '%' OR search_text LIKE '% ' || f_search_fold('an') || '%'
+-- ORDER BY id DESC LIMIT 10;
+-- → BitmapOr của hai "Bitmap Index Scan on idx_contacts_search_text_trgm"
@@ -11,17 +11,25 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import vn.mobi.trolytrucao.common.CommonResponse;
 import vn.mobi.trolytrucao.common.Constants;
+import vn.mobi.trolytrucao.common.ImportResult;
 import vn.mobi.trolytrucao.component.AbstractService;
 import vn.mobi.trolytrucao.contact.dto.ContactRequest;
 import vn.mobi.trolytrucao.contact.service.ContactService;
+import vn.mobi.trolytrucao.job.dto.JobInfo;
+import vn.mobi.trolytrucao.job.dto.JobResult;
+import vn.mobi.trolytrucao.job.dto.JobType;
+import vn.mobi.trolytrucao.job.service.JobService;
 
 import java.util.List;
 
@@ -32,9 +40,14 @@ import java.util.List;
 @Tag(name = "Contact Management", description = "API endpoints for managing contacts")
 public class ContactController extends AbstractService {
 
+    private static final String JOB_MODULE = "contacts";
+
     @Autowired
     ContactService contactService;
 
+    @Autowired
+    JobService jobService;
+
     @SneakyThrows
     @GetMapping("")
     @Operation(summary = "Get all contacts", description = "Retrieve paginated list of contacts with optional filtering and sorting")
@@ -45,7 +58,7 @@ public class ContactController extends AbstractService {
             @ApiResponse(responseCode = "400", description = "Invalid parameters",
                     content = @Content(mediaType = "application/json"))
     })
-    public ResponseEntity<CommonResponse<Object>> getAllContacts(
+    public ResponseEntity<?> getAllContacts(
             @Parameter(description = "Page number (1-based)", example = "1")
             @RequestParam(required = false, defaultValue = "1") Integer page,
             @Parameter(description = "Number of items per page", example = "10")
@@ -55,9 +68,21 @@ public class ContactController extends AbstractService {
             @Parameter(description = "Sort direction (asc/desc)", example = "desc")
             @RequestParam(name = "sortDir", required = false, defaultValue = "desc") String sortDir,
             @Parameter(description = "Field to sort by", example = "id")
-            @RequestParam(name = "sortKey", required = false, defaultValue = "id") String sortKey
+            @RequestParam(name = "sortKey", required = false, defaultValue = "id") String sortKey,
+            @Parameter(description = "Opaque cursor for keyset pagination (empty for the first page, then nextCursor); page is ignored when set")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Include total count in cursor mode", example = "false")
+            @RequestParam(required = false, defaultValue = "false") Boolean includeTotal,
+            @Parameter(description = "Write rows straight to the response instead of building a JSON tree (page mode only)", example = "false")
+            @RequestParam(required = false, defaultValue = "false") Boolean stream
     ) {
-        ObjectNode data = contactService.getAllContacts(page, limit, keyword, sortDir, sortKey);
+        if (stream && cursor == null) {
+            return streamCommonResponse(contactService.streamAllContacts(page, limit, keyword, sortDir, sortKey));
+        }
+
+        ObjectNode data = cursor != null
+                ? contactService.getAllContactsByCursor(cursor, limit, keyword, sortDir, sortKey, includeTotal)
+                : contactService.getAllContacts(page, limit, keyword, sortDir, sortKey);
 
         CommonResponse<Object> commonResponse = CommonResponse.builder()
                 .success(true)
@@ -78,7 +103,7 @@ public class ContactController extends AbstractService {
             @ApiResponse(responseCode = "400", description = "Invalid parameters",
                     content = @Content(mediaType = "application/json"))
     })
-    public ResponseEntity<CommonResponse<Object>> filterContacts(
+    public ResponseEntity<?> filterContacts(
             @Parameter(description = "Page number (1-based)", example = "1")
             @RequestParam(required = false, defaultValue = "1") Integer page,
             @Parameter(description = "Number of items per page", example = "10")
@@ -96,9 +121,21 @@ public class ContactController extends AbstractService {
             @Parameter(description = "Sort direction (asc/desc)", example = "desc")
             @RequestParam(name = "sortDir", required = false, defaultValue = "desc") String sortDir,
             @Parameter(description = "Field to sort by", example = "id")
-            @RequestParam(name = "sortKey", required = false, defaultValue = "id") String sortKey
+            @RequestParam(name = "sortKey", required = false, defaultValue = "id") String sortKey,
+            @Parameter(description = "Opaque cursor for keyset pagination (empty for the first page, then nextCursor); page is ignored when set")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Include total count in cursor mode", example = "false")
+            @RequestParam(required = false, defaultValue = "false") Boolean includeTotal,
+            @Parameter(description = "Write rows straight to the response instead of building a JSON tree (page mode only)", example = "false")
+            @RequestParam(required = false, defaultValue = "false") Boolean stream
     ) {
-        ObjectNode data = contactService.filterContacts(page, limit, fullName, departmentId, email, phone, isActive, sortDir, sortKey);
+        if (stream && cursor == null) {
+            return streamCommonResponse(contactService.streamFilteredContacts(page, limit, fullName, departmentId, email, phone, isActive, sortDir, sortKey));
+        }
+
+        ObjectNode data = cursor != null
+                ? contactService.filterContactsByCursor(cursor, limit, fullName, departmentId, email, phone, isActive, sortDir, sortKey, includeTotal)
+                : contactService.filterContacts(page, limit, fullName, departmentId, email, phone, isActive, sortDir, sortKey);
 
         CommonResponse<Object> commonResponse = CommonResponse.builder()
                 .success(true)
@@ -229,19 +266,19 @@ public class ContactController extends AbstractService {
             @ApiResponse(responseCode = "200", description = "Excel file generated successfully",
                     content = @Content(mediaType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
     })
-    public ResponseEntity<byte[]> exportToExcel() throws Exception {
-        byte[] excelBytes = contactService.exportToExcel();
+    public ResponseEntity<StreamingResponseBody> exportToExcel() {
+        // Rows are paged by id and flushed straight to the response, so no Content-Length (chunked transfer)
+        StreamingResponseBody body = meteredExport(JOB_MODULE, outputStream -> contactService.exportToExcel(outputStream));
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "contacts_export.xlsx");
-        headers.setContentLength(excelBytes.length);
 
-        return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @PostMapping("/import")
-    @Operation(summary = "Import contacts from file", description = "Import contacts from Excel, CSV, or TXT file")
+    @Operation(summary = "Import contacts from file", description = "Import contacts from Excel, CSV, or TXT file; returns row counts and a per-row error report")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Contacts imported successfully",
                     content = @Content(mediaType = "application/json",
@@ -253,12 +290,12 @@ public class ContactController extends AbstractService {
             @Parameter(description = "File to import (.xlsx, .xls, .csv, .txt)", required = true)
             @RequestParam("file") MultipartFile file) throws Exception {
 
-        List<?> importedContacts = contactService.importFromFile(file);
+        ImportResult result = meteredImport(JOB_MODULE, file, contactService::importFromFile);
 
         CommonResponse<Object> commonResponse = CommonResponse.builder()
                 .success(true)
-                .data(importedContacts)
-                .message("Imported " + importedContacts.size() + " contacts successfully")
+                .data(result)
+                .message("Imported " + result.getImportedRows() + "/" + result.getTotalRows() + " contacts successfully")
                 .statusCode(Constants.STATUS_API_SUCCESS)
                 .build();
         return new ResponseEntity<>(commonResponse, HttpStatus.OK);
@@ -280,4 +317,76 @@ public class ContactController extends AbstractService {
 
         return new ResponseEntity<>(templateBytes, headers, HttpStatus.OK);
     }
+
+    @PostMapping("/jobs")
+    @Operation(summary = "Submit import/export job", description = "Run a contact import or export in the background; poll /jobs/{id} for progress")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job accepted",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CommonResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid job type or missing file",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "429", description = "Too many jobs of this type running",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<CommonResponse<Object>> submitJob(
+            @Parameter(description = "Job type (import/export)", example = "export", required = true)
+            @RequestParam String type,
+            @Parameter(description = "File to import (.xlsx, .xls, .csv, .txt), required when type=import")
+            @RequestParam(value = "file", required = false) MultipartFile file) throws Exception {
+        JobInfo job = switch (JobType.from(type)) {
+            case IMPORT -> jobService.submitImport(JOB_MODULE, file, contactService::importFromFile);
+            case EXPORT -> jobService.submitExport(JOB_MODULE, "contacts_export.xlsx", contactService::exportToExcel);
+        };
+
+        CommonResponse<Object> commonResponse = CommonResponse.builder()
+                .success(true)
+                .data(job)
+                .message(Constants.SUCCESS)
+                .statusCode(Constants.STATUS_API_SUCCESS)
+                .build();
+        return new ResponseEntity<>(commonResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Get job progress", description = "Get status, processed/total rows and ETA of an import/export job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job status retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CommonResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Job not found",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<CommonResponse<Object>> getJob(
+            @Parameter(description = "Job ID", required = true)
+            @PathVariable String id) {
+
+        CommonResponse<Object> commonResponse = CommonResponse.builder()
+                .success(true)
+                .data(jobService.getJob(JOB_MODULE, id))
+                .message(Constants.SUCCESS)
+                .statusCode(Constants.STATUS_API_SUCCESS)
+                .build();
+        return new ResponseEntity<>(commonResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    @Operation(summary = "Download job result", description = "Download the exported Excel file or the import report of a finished job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result file downloaded successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found or not finished",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<Resource> downloadJobResult(
+            @Parameter(description = "Job ID", required = true)
+            @PathVariable String id) {
+        JobResult result = jobService.getResult(JOB_MODULE, id);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(result.getContentType()));
+        headers.setContentDispositionFormData("attachment", result.getFileName());
+        headers.setContentLength(result.getSize());
+
+        return new ResponseEntity<>(new FileSystemResource(result.getPath()), headers, HttpStatus.OK);
+    }
 }
@@ -7,6 +7,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,8 +17,14 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import vn.mobi.trolytrucao.common.CommonResponse;
 import vn.mobi.trolytrucao.common.Constants;
+import vn.mobi.trolytrucao.common.ImportResult;
 import vn.mobi.trolytrucao.component.AbstractService;
+import vn.mobi.trolytrucao.job.dto.JobInfo;
+import vn.mobi.trolytrucao.job.dto.JobResult;
+import vn.mobi.trolytrucao.job.dto.JobType;
+import vn.mobi.trolytrucao.job.service.JobService;
 import vn.mobi.trolytrucao.sys_severity.dto.SysSeverityRequest;
+import vn.mobi.trolytrucao.sys_severity.service.SysSeverityCache;
 import vn.mobi.trolytrucao.sys_severity.service.SysSeverityService;
 
 import java.util.List;
@@ -28,13 +36,21 @@ import java.util.List;
 @Tag(name = "System Severity Configuration", description = "API quản lý cấu hình mức độ cảnh báo")
 public class SysSeverityController extends AbstractService {
 
+    private static final String JOB_MODULE = "sys-severity";
+
     @Autowired
     private SysSeverityService sysSeverityService;
 
+    @Autowired
+    private SysSeverityCache sysSeverityCache;
+
+    @Autowired
+    private JobService jobService;
+
     @SneakyThrows
     @GetMapping("")
     @Operation(summary = "Lấy danh sách severity", description = "Lấy danh sách cấu hình mức độ cảnh báo có phân trang")
-    public ResponseEntity<CommonResponse<Object>> getAllSeverities(
+    public ResponseEntity<?> getAllSeverities(
             @Parameter(description = "Số trang", example = "1")
             @RequestParam(required = false, defaultValue = "1") Integer page,
             @Parameter(description = "Số items/trang", example = "10")
@@ -44,9 +60,20 @@ public class SysSeverityController extends AbstractService {
             @Parameter(description = "Hướng sắp xếp: asc/desc")
             @RequestParam(name = "sort_dir", required = false, defaultValue = "desc") String sortDir,
             @Parameter(description = "Trường sắp xếp")
-            @RequestParam(name = "sort_key", required = false, defaultValue = "priorityLevel") String sortKey
+            @RequestParam(name = "sort_key", required = false, defaultValue = "priorityLevel") String sortKey,
+            @Parameter(description = "Cursor phân trang keyset (rỗng cho trang đầu, sau đó dùng nextCursor); bỏ qua page khi có cursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Trả về total khi dùng cursor")
+            @RequestParam(name = "include_total", required = false, defaultValue = "false") Boolean includeTotal,
+            @Parameter(description = "Ghi thẳng từng dòng ra response, không dựng JSON tree (chỉ chế độ page)")
+            @RequestParam(required = false, defaultValue = "false") Boolean stream
     ) {
-        ObjectNode data = sysSeverityService.getAllSeverities(page, limit, keyword, sortDir, sortKey);
+        if (stream && cursor == null) {
+            return streamCommonResponse(sysSeverityService.streamAllSeverities(page, limit, keyword, sortDir, sortKey));
+        }
+        ObjectNode data = cursor != null
+                ? sysSeverityService.getAllSeveritiesByCursor(cursor, limit, keyword, sortDir, sortKey, includeTotal)
+                : sysSeverityService.getAllSeverities(page, limit, keyword, sortDir, sortKey);
         return new ResponseEntity<>(CommonResponse.builder()
                 .success(true).data(data).message(Constants.SUCCESS).statusCode(Constants.STATUS_API_SUCCESS).build(), HttpStatus.OK);
     }
@@ -67,6 +94,13 @@ public class SysSeverityController extends AbstractService {
                 .success(true).data(sysSeverityService.getActiveSeverities()).message(Constants.SUCCESS).statusCode(Constants.STATUS_API_SUCCESS).build(), HttpStatus.OK);
     }
 
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Thống kê cache severity (hit/miss/refresh)")
+    public ResponseEntity<CommonResponse<Object>> getCacheStats() {
+        return new ResponseEntity<>(CommonResponse.builder()
+                .success(true).data(sysSeverityCache.getStats()).message(Constants.SUCCESS).statusCode(Constants.STATUS_API_SUCCESS).build(), HttpStatus.OK);
+    }
+
     @PostMapping("/create")
     @Operation(summary = "Tạo mới severity")
     public ResponseEntity<CommonResponse<Object>> createSeverity(@RequestBody SysSeverityRequest request) {
@@ -102,7 +136,7 @@ public class SysSeverityController extends AbstractService {
     @GetMapping("/export")
     @Operation(summary = "Xuất Excel")
     public ResponseEntity<byte[]> exportToExcel() throws Exception {
-        byte[] excelBytes = sysSeverityService.exportToExcel();
+        byte[] excelBytes = meteredExportBytes(JOB_MODULE, sysSeverityService::exportToExcel);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "sys_severity_export.xlsx");
@@ -113,9 +147,10 @@ public class SysSeverityController extends AbstractService {
     @PostMapping("/import")
     @Operation(summary = "Nhập từ Excel")
     public ResponseEntity<CommonResponse<Object>> importFromFile(@RequestParam("file") MultipartFile file) throws Exception {
-        List<?> imported = sysSeverityService.importFromFile(file);
+        ImportResult result = meteredImport(JOB_MODULE, file, sysSeverityService::importFromFile);
         return new ResponseEntity<>(CommonResponse.builder()
-                .success(true).data(imported).message("Imported " + imported.size() + " items").statusCode(Constants.STATUS_API_SUCCESS).build(), HttpStatus.OK);
+                .success(true).data(result).message("Imported " + result.getImportedRows() + "/" + result.getTotalRows() + " items")
+                .statusCode(Constants.STATUS_API_SUCCESS).build(), HttpStatus.OK);
     }
 
     @GetMapping("/template")
@@ -128,4 +163,35 @@ public class SysSeverityController extends AbstractService {
         headers.setContentLength(templateBytes.length);
         return new ResponseEntity<>(templateBytes, headers, HttpStatus.OK);
     }
+
+    @PostMapping("/jobs")
+    @Operation(summary = "Tạo job nhập/xuất chạy nền", description = "type = import | export; theo dõi tiến độ qua /jobs/{id}")
+    public ResponseEntity<CommonResponse<Object>> submitJob(
+            @RequestParam String type,
+            @RequestParam(value = "file", required = false) MultipartFile file) throws Exception {
+        JobInfo job = switch (JobType.from(type)) {
+            case IMPORT -> jobService.submitImport(JOB_MODULE, file, sysSeverityService::importFromFile);
+            case EXPORT -> jobService.submitExport(JOB_MODULE, "sys_severity_export.xlsx", sysSeverityService::exportToExcel);
+        };
+        return new ResponseEntity<>(CommonResponse.builder()
+                .success(true).data(job).message(Constants.SUCCESS).statusCode(Constants.STATUS_API_SUCCESS).build(), HttpStatus.OK);
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Tiến độ job nhập/xuất")
+    public ResponseEntity<CommonResponse<Object>> getJob(@PathVariable String id) {
+        return new ResponseEntity<>(CommonResponse.builder()
+                .success(true).data(jobService.getJob(JOB_MODULE, id)).message(Constants.SUCCESS).statusCode(Constants.STATUS_API_SUCCESS).build(), HttpStatus.OK);
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    @Operation(summary = "Tải kết quả job nhập/xuất")
+    public ResponseEntity<Resource> downloadJobResult(@PathVariable String id) {
+        JobResult result = jobService.getResult(JOB_MODULE, id);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(result.getContentType()));
+        headers.setContentDispositionFormData("attachment", result.getFileName());
+        headers.setContentLength(result.getSize());
+        return new ResponseEntity<>(new FileSystemResource(result.getPath()), headers, HttpStatus.OK);
+    }
 }
@@ -1,6 +1,7 @@
 import express, { type Request, Response, NextFunction } from "express";
 import { registerRoutes } from "./routes";
 import { setupVite, serveStatic, log } from "./vite";
+import { recoverPendingNotifications } from "./services/notificationDispatcher";
 
 const app = express();
 
@@ -92,5 +93,11 @@ app.use((req, res, next) => {
     reusePort: true,
   }, () => {
     log(`serving on port ${port}`);
+
+    // Gửi lại các thông báo còn pending/retrying từ lần chạy trước - sau khi đã listen:
+    // DB chưa sẵn sàng lúc khởi động chỉ làm lỡ lần gửi lại, không làm server không lên được
+    recoverPendingNotifications().catch(error => {
+      console.error("Failed to re-queue pending notifications:", error);
+    });
   });
 })();
@@ -11,6 +11,7 @@ import {
 } from "@shared/schema";
 import { analyzeLogWithAI, processAlertWithAI } from "./services/ai";
 import { sendMultiChannelNotification } from "./services/notifications";
+import { getDispatcherStats } from "./services/notificationDispatcher";
 
 export async function registerRoutes(app: Express) {
   app.get("/api/systems", async (req, res) => {
@@ -388,6 +389,14 @@ export async function registerRoutes(app: Express) {
     }
   });
 
+  app.get("/api/notifications/dispatcher/stats", async (req, res) => {
+    try {
+      res.json(getDispatcherStats());
+    } catch (error: any) {
+      res.status(500).json({ error: error.message });
+    }
+  });
+
   // app.get("/api/stats", async (req, res) => {
   //   try {
   //     const systems = await storage.getSystems();
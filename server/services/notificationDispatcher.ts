@@ -0,0 +1,441 @@
+import type { Notification } from "@shared/schema";
+import { storage } from "../storage";
+
+// Dispatcher gửi thông báo bất đồng bộ theo từng kênh:
+// - Mỗi kênh một hàng đợi có giới hạn + N worker, kênh chậm không chặn kênh khác và không chặn luồng tạo alert
+// - Gom nhiều người nhận cùng nội dung thành một lần gửi (nếu kênh hỗ trợ)
+// - Retry với exponential backoff + circuit breaker theo kênh
+// - Trạng thái gửi nằm trong bảng notifications (pending → retrying → sent/failed), được nạp lại khi khởi động
+
+export type NotificationChannel = "chatwork" | "email" | "sms";
+
+export interface DeliveryJob {
+  notificationId: number;
+  channel: NotificationChannel;
+  recipient: string;
+  message: string;
+  subject?: string;
+  attempts: number;
+  enqueuedAt: number;
+}
+
+export interface ChannelTransport {
+  // Số người nhận tối đa trong một lần gửi (1 = không gom)
+  maxBatchSize: number;
+  send(recipients: string[], message: string, subject?: string): Promise<void>;
+}
+
+export interface ChannelOptions {
+  queueCapacity: number;
+  concurrency: number;
+  maxAttempts: number;
+  baseBackoffMs: number;
+  maxBackoffMs: number;
+  breakerFailureThreshold: number;
+  breakerCooldownMs: number;
+}
+
+const DEFAULT_OPTIONS: ChannelOptions = {
+  queueCapacity: parseInt(process.env.NOTIFY_QUEUE_CAPACITY || "10000", 10),
+  concurrency: parseInt(process.env.NOTIFY_CONCURRENCY || "4", 10),
+  maxAttempts: parseInt(process.env.NOTIFY_MAX_ATTEMPTS || "5", 10),
+  baseBackoffMs: 1000,
+  maxBackoffMs: 60000,
+  breakerFailureThreshold: 5,
+  breakerCooldownMs: 30000,
+};
+
+const LATENCY_SAMPLES = 1024;
+const THROUGHPUT_WINDOW_SECONDS = 60;
+
+type BreakerState = "closed" | "open" | "half-open";
+
+class CircuitBreaker {
+  private state: BreakerState = "closed";
+  private consecutiveFailures = 0;
+  private openedAt = 0;
+  private probeInFlight = false;
+
+  constructor(private threshold: number, private cooldownMs: number) {}
+
+  // Trả về true nếu được phép gửi; ở half-open chỉ cho một lần gửi thử
+  tryAcquire(): boolean {
+    if (this.state === "open") {
+      if (Date.now() - this.openedAt < this.cooldownMs) return false;
+      this.state = "half-open";
+    }
+    if (this.state === "half-open") {
+      if (this.probeInFlight) return false;
+      this.probeInFlight = true;
+    }
+    return true;
+  }
+
+  onSuccess() {
+    this.state = "closed";
+    this.consecutiveFailures = 0;
+    this.probeInFlight = false;
+  }
+
+  onFailure() {
+    this.probeInFlight = false;
+    this.consecutiveFailures++;
+    if (this.state === "half-open" || this.consecutiveFailures >= this.threshold) {
+      this.state = "open";
+      this.openedAt = Date.now();
+    }
+  }
+
+  remainingCooldownMs(): number {
+    return this.state === "open" ? Math.max(0, this.cooldownMs - (Date.now() - this.openedAt)) : 0;
+  }
+
+  getState(): BreakerState {
+    return this.state;
+  }
+}
+
+class ChannelMetrics {
+  enqueued = 0;
+  sent = 0;
+  failed = 0;
+  retried = 0;
+  rejected = 0;
+  batches = 0;
+  private latencies: number[] = [];
+  private latencyCursor = 0;
+  private sentPerSecond = new Array<number>(THROUGHPUT_WINDOW_SECONDS).fill(0);
+  private secondStamps = new Array<number>(THROUGHPUT_WINDOW_SECONDS).fill(0);
+
+  recordSent(count: number, latenciesMs: number[]) {
+    this.sent += count;
+    this.batches++;
+    const second = Math.floor(Date.now() / 1000);
+    const slot = second % THROUGHPUT_WINDOW_SECONDS;
+    if (this.secondStamps[slot] !== second) {
+      this.secondStamps[slot] = second;
+      this.sentPerSecond[slot] = 0;
+    }
+    this.sentPerSecond[slot] += count;
+    for (const latency of latenciesMs) {
+      if (this.latencies.length < LATENCY_SAMPLES) {
+        this.latencies.push(latency);
+      } else {
+        this.latencies[this.latencyCursor] = latency;
+        this.latencyCursor = (this.latencyCursor + 1) % LATENCY_SAMPLES;
+      }
+    }
+  }
+
+  throughputPerSecond(): number {
+    const now = Math.floor(Date.now() / 1000);
+    let total = 0;
+    for (let i = 0; i < THROUGHPUT_WINDOW_SECONDS; i++) {
+      if (now - this.secondStamps[i] < THROUGHPUT_WINDOW_SECONDS) total += this.sentPerSecond[i];
+    }
+    return Math.round((total / THROUGHPUT_WINDOW_SECONDS) * 100) / 100;
+  }
+
+  latencyPercentiles() {
+    if (this.latencies.length === 0) return { p50: null, p95: null, p99: null, max: null };
+    const sorted = [...this.latencies].sort((a, b) => a - b);
+    const at = (q: number) => sorted[Math.min(sorted.length - 1, Math.floor(q * sorted.length))];
+    return { p50: at(0.5), p95: at(0.95), p99: at(0.99), max: sorted[sorted.length - 1] };
+  }
+}
+
+class ChannelDispatcher {
+  private queue: DeliveryJob[] = [];
+  private head = 0;
+  private activeWorkers = 0;
+  private pendingRetries = 0;
+  private breakerTimer: NodeJS.Timeout | null = null;
+  readonly breaker: CircuitBreaker;
+  readonly metrics = new ChannelMetrics();
+
+  constructor(
+    readonly channel: NotificationChannel,
+    private transport: ChannelTransport,
+    private options: ChannelOptions
+  ) {
+    this.breaker = new CircuitBreaker(options.breakerFailureThreshold, options.breakerCooldownMs);
+  }
+
+  queueDepth(): number {
+    return this.queue.length - this.head;
+  }
+
+  // Đưa cả nhóm vào hàng đợi rồi mới pump một lần → các job cùng nội dung nằm liền nhau, được gom thành một lần gửi
+  // force = true cho job retry / job nạp lại khi khởi động: đã có bản ghi trong DB, không được bỏ
+  // Trả về các job bị từ chối vì hàng đợi đầy
+  enqueueAll(jobs: DeliveryJob[], force = false): DeliveryJob[] {
+    const rejected: DeliveryJob[] = [];
+    for (const job of jobs) {
+      if (!force && this.queueDepth() >= this.options.queueCapacity) {
+        this.metrics.rejected++;
+        rejected.push(job);
+        continue;
+      }
+      this.queue.push(job);
+      this.metrics.enqueued++;
+    }
+    this.pump();
+    return rejected;
+  }
+
+  private pump() {
+    while (this.activeWorkers < this.options.concurrency && this.queueDepth() > 0) {
+      if (!this.breaker.tryAcquire()) {
+        this.scheduleBreakerWakeup();
+        return;
+      }
+      const batch = this.takeBatch();
+      this.activeWorkers++;
+      this.deliver(batch).finally(() => {
+        this.activeWorkers--;
+        this.pump();
+      });
+    }
+  }
+
+  // Lấy job đầu hàng đợi + các job liền sau có cùng nội dung và cùng số lần thử, tối đa maxBatchSize
+  // (cùng attempts → deliver/handleFailure dùng chung một giá trị attempts cho cả batch)
+  private takeBatch(): DeliveryJob[] {
+    const first = this.queue[this.head++];
+    const batch = [first];
+    while (
+      batch.length < this.transport.maxBatchSize &&
+      this.head < this.queue.length &&
+      this.queue[this.head].message === first.message &&
+      this.queue[this.head].subject === first.subject &&
+      this.queue[this.head].attempts === first.attempts
+    ) {
+      batch.push(this.queue[this.head++]);
+    }
+    if (this.head > 1024 && this.head * 2 > this.queue.length) {
+      this.queue = this.queue.slice(this.head);
+      this.head = 0;
+    }
+    return batch;
+  }
+
+  private async deliver(batch: DeliveryJob[]) {
+    const first = batch[0];
+    const ids = batch.map(job => job.notificationId);
+    try {
+      await this.transport.send(batch.map(job => job.recipient), first.message, first.subject);
+    } catch (error: any) {
+      this.breaker.onFailure();
+      await this.handleFailure(batch, error?.message || String(error)).catch(err =>
+        console.error(`[${this.channel.toUpperCase()}] Failed to record delivery failure:`, err)
+      );
+      return;
+    }
+
+    // Đã gửi thành công: lỗi khi ghi trạng thái không được dẫn tới gửi lại
+    this.breaker.onSuccess();
+    const now = Date.now();
+    this.metrics.recordSent(batch.length, batch.map(job => now - job.enqueuedAt));
+    try {
+      await storage.updateNotificationsStatus(ids, "sent", new Date(now), undefined, first.attempts + 1);
+    } catch (error) {
+      console.error(`[${this.channel.toUpperCase()}] Failed to mark ${ids.length} notification(s) as sent:`, error);
+    }
+  }
+
+  private async handleFailure(batch: DeliveryJob[], errorMessage: string) {
+    const attempts = batch[0].attempts + 1;
+    const ids = batch.map(job => job.notificationId);
+    if (attempts >= this.options.maxAttempts) {
+      this.metrics.failed += batch.length;
+      console.error(`[${this.channel.toUpperCase()}] Giving up on ${batch.length} recipient(s) after ${attempts} attempts: ${errorMessage}`);
+      await storage.updateNotificationsStatus(ids, "failed", undefined, errorMessage, attempts);
+      return;
+    }
+
+    this.metrics.retried += batch.length;
+
+    this.pendingRetries += batch.length;
+    try {
+      await storage.updateNotificationsStatus(ids, "retrying", undefined, errorMessage, attempts);
+    } finally {
+      // Chỉ hẹn giờ sau khi ghi "retrying" xong: nếu không, lần gửi lại có thể ghi "sent" trước rồi bị "retrying" ghi đè
+      this.scheduleRetry(batch, attempts);
+    }
+  }
+
+  private scheduleRetry(batch: DeliveryJob[], attempts: number) {
+    // Full jitter: tránh mọi worker cùng retry một lúc khi kênh vừa phục hồi
+    const ceiling = Math.min(this.options.maxBackoffMs, this.options.baseBackoffMs * 2 ** (attempts - 1));
+    const delay = Math.floor(Math.random() * ceiling);
+    setTimeout(() => {
+      this.pendingRetries -= batch.length;
+      this.enqueueAll(batch.map(job => ({ ...job, attempts })), true);
+    }, delay).unref();
+  }
+
+  private scheduleBreakerWakeup() {
+    if (this.breakerTimer) return;
+    const wait = Math.max(100, this.breaker.remainingCooldownMs());
+    this.breakerTimer = setTimeout(() => {
+      this.breakerTimer = null;
+      this.pump();
+    }, wait);
+    this.breakerTimer.unref();
+  }
+
+  stats() {
+    return {
+      channel: this.channel,
+      queueDepth: this.queueDepth(),
+      queueCapacity: this.options.queueCapacity,
+      activeWorkers: this.activeWorkers,
+      pendingRetries: this.pendingRetries,
+      circuitBreaker: this.breaker.getState(),
+      enqueued: this.metrics.enqueued,
+      sent: this.metrics.sent,
+      failed: this.metrics.failed,
+      retried: this.metrics.retried,
+      rejected: this.metrics.rejected,
+      batches: this.metrics.batches,
+      throughputPerSecond: this.metrics.throughputPerSecond(),
+      latencyMs: this.metrics.latencyPercentiles(),
+    };
+  }
+}
+
+// ===== Transports =====
+
+// Khi có URL (ví dụ stub server local) → gửi HTTP thật; không có → chỉ log ra console như trước
+async function postJson(url: string, body: unknown) {
+  const response = await fetch(url, {
+    method: "POST",
+    headers: { "Content-Type": "application/json" },
+    body: JSON.stringify(body),
+    signal: AbortSignal.timeout(10000),
+  });
+  if (!response.ok) {
+    throw new Error(`HTTP ${response.status} from ${url}`);
+  }
+}
+
+function createChatworkTransport(): ChannelTransport {
+  const url = process.env.ECHAT_API_URL;
+  return {
+    // Mỗi recipient là một group chat, không gom được
+    maxBatchSize: 1,
+    async send(recipients, message) {
+      if (url) {
+        await postJson(`${url}/rooms/${encodeURIComponent(recipients[0])}/messages`, { body: message });
+        return;
+      }
+      console.log(`[CHATWORK] Sending to group ${recipients[0]}:`);
+      console.log(message);
+      console.log("---");
+    },
+  };
+}
+
+// Subject không lưu trong bảng notifications → job nạp lại sau restart dùng subject mặc định
+const DEFAULT_EMAIL_SUBJECT = "[TRỰC CA AI] Cảnh báo hệ thống";
+
+function createEmailTransport(): ChannelTransport {
+  const url = process.env.EMAIL_API_URL;
+  return {
+    maxBatchSize: 50,
+    async send(recipients, message, subject) {
+      if (url) {
+        await postJson(`${url}/send`, { bcc: recipients, subject: subject || DEFAULT_EMAIL_SUBJECT, body: message });
+        return;
+      }
+      console.log(`[EMAIL] Sending to ${recipients.join(", ")}:`);
+      console.log(`Subject: ${subject || DEFAULT_EMAIL_SUBJECT}`);
+      console.log(message);
+      console.log("---");
+    },
+  };
+}
+
+function createSmsTransport(): ChannelTransport {
+  const url = process.env.SMS_GATEWAY_URL;
+  return {
+    maxBatchSize: 100,
+    async send(recipients, message) {
+      if (url) {
+        await postJson(`${url}/sms/batch`, { to: recipients, text: message });
+        return;
+      }
+      console.log(`[SMS] Sending to ${recipients.join(", ")}:`);
+      console.log(message);
+      console.log("---");
+    },
+  };
+}
+
+// ===== Public API =====
+
+const dispatchers: Record<NotificationChannel, ChannelDispatcher> = {
+  chatwork: new ChannelDispatcher("chatwork", createChatworkTransport(), DEFAULT_OPTIONS),
+  email: new ChannelDispatcher("email", createEmailTransport(), DEFAULT_OPTIONS),
+  sms: new ChannelDispatcher("sms", createSmsTransport(), DEFAULT_OPTIONS),
+};
+
+function toJob(notification: Notification, subject?: string): DeliveryJob {
+  return {
+    notificationId: notification.id,
+    channel: notification.channel as NotificationChannel,
+    recipient: notification.recipient,
+    message: notification.message,
+    subject,
+    attempts: notification.attempts ?? 0,
+    enqueuedAt: new Date(notification.createdAt).getTime(),
+  };
+}
+
+// Ghi bản ghi pending trước rồi mới đưa vào hàng đợi → restart giữa chừng vẫn gửi lại được
+export async function enqueueNotifications(
+  incidentId: number,
+  channel: NotificationChannel,
+  recipients: string[],
+  message: string,
+  subject?: string
+): Promise<number> {
+  const unique = Array.from(new Set(recipients.filter(Boolean)));
+  if (unique.length === 0) return 0;
+
+  const created = await storage.createNotifications(
+    unique.map(recipient => ({ incidentId, channel, recipient, message }))
+  );
+
+  const rejectedIds = dispatchers[channel]
+    .enqueueAll(created.map(notification => toJob(notification, subject)))
+    .map(job => job.notificationId);
+  if (rejectedIds.length > 0) {
+    console.error(`[${channel.toUpperCase()}] Queue full, rejected ${rejectedIds.length} notification(s)`);
+    await storage.updateNotificationsStatus(rejectedIds, "failed", undefined, "Queue full");
+  }
+  return created.length - rejectedIds.length;
+}
+
+// Gọi một lần khi server khởi động
+export async function recoverPendingNotifications(): Promise<number> {
+  const pending = await storage.getPendingNotifications();
+  const jobsByChannel = new Map<ChannelDispatcher, DeliveryJob[]>();
+  for (const notification of pending) {
+    const dispatcher = dispatchers[notification.channel as NotificationChannel];
+    if (dispatcher) {
+      const jobs = jobsByChannel.get(dispatcher) ?? [];
+      jobs.push(toJob(notification));
+      jobsByChannel.set(dispatcher, jobs);
+    }
+  }
+  jobsByChannel.forEach((jobs, dispatcher) => dispatcher.enqueueAll(jobs, true));
+  if (pending.length > 0) {
+    console.log(`✓ Re-queued ${pending.length} pending notification(s)`);
+  }
+  return pending.length;
+}
+
+export function getDispatcherStats() {
+  return Object.values(dispatchers).map(dispatcher => dispatcher.stats());
+}
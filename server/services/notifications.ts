@@ -1,6 +1,8 @@
 import type { Incident, Alert, System } from "@shared/schema";
 import { storage } from "../storage";
+import { enqueueNotifications } from "./notificationDispatcher";
 
+// Chỉ ghi bản ghi pending + đưa vào hàng đợi của từng kênh; việc gửi do notificationDispatcher đảm nhận
 export async function sendMultiChannelNotification(
   incident: Incident,
   alert: Alert,
@@ -9,136 +11,23 @@ export async function sendMultiChannelNotification(
   try {
     const systemName = system?.name || "Unknown System";
     const message = formatNotificationMessage(incident, alert, systemName);
-
-    if (alert.severity === "down" || alert.severity === "critical") {
-      await sendChatworkNotification(incident, message, system);
-      await sendEmailNotification(incident, message, system);
-      await sendSMSNotification(incident, message, system);
-    } else if (alert.severity === "major") {
-      await sendChatworkNotification(incident, message, system);
-      await sendEmailNotification(incident, message, system);
-    } else {
-      await sendChatworkNotification(incident, message, system);
-    }
-
-    console.log(`✓ Multi-channel notifications sent for incident #${incident.id}`);
-  } catch (error) {
-    console.error("Notification error:", error);
-  }
-}
-
-async function sendChatworkNotification(
-  incident: Incident,
-  message: string,
-  system: System | null | undefined
-) {
-  try {
     const chatworkGroupId = system?.chatworkGroupId || "GENERAL_GROUP";
-    
-    console.log(`[CHATWORK] Sending to group ${chatworkGroupId}:`);
-    console.log(message);
-    console.log("---");
 
-    const notification = await storage.createNotification({
-      incidentId: incident.id,
-      channel: "chatwork",
-      recipient: chatworkGroupId,
-      message,
-    });
+    let queued = await enqueueNotifications(incident.id, "chatwork", [chatworkGroupId], message);
 
-    await storage.updateNotificationStatus(
-      notification.id,
-      "sent",
-      new Date(),
-      undefined
-    );
-
-    await simulateDelay(500);
-  } catch (error: any) {
-    console.error("Chatwork notification failed:", error);
-    const failedNotification = await storage.createNotification({
-      incidentId: incident.id,
-      channel: "chatwork",
-      recipient: system?.chatworkGroupId || "GENERAL_GROUP",
-      message,
-    });
-    await storage.updateNotificationStatus(
-      failedNotification.id,
-      "failed",
-      undefined,
-      error.message
-    );
-  }
-}
-
-async function sendEmailNotification(
-  incident: Incident,
-  message: string,
-  system: System | null | undefined
-) {
-  try {
-    const emails = await getNotificationEmails(incident.severity);
-    
-    for (const email of emails) {
-      console.log(`[EMAIL] Sending to ${email}:`);
-      console.log(`Subject: [${incident.severity.toUpperCase()}] ${incident.title}`);
-      console.log(message);
-      console.log("---");
-
-      const notification = await storage.createNotification({
-        incidentId: incident.id,
-        channel: "email",
-        recipient: email,
-        message,
-      });
-
-      await storage.updateNotificationStatus(
-        notification.id,
-        "sent",
-        new Date(),
-        undefined
-      );
+    if (alert.severity === "down" || alert.severity === "critical" || alert.severity === "major") {
+      const subject = `[${incident.severity.toUpperCase()}] ${incident.title}`;
+      queued += await enqueueNotifications(incident.id, "email", await getNotificationEmails(incident.severity), message, subject);
     }
 
-    await simulateDelay(300);
-  } catch (error: any) {
-    console.error("Email notification failed:", error);
-  }
-}
-
-async function sendSMSNotification(
-  incident: Incident,
-  message: string,
-  system: System | null | undefined
-) {
-  try {
-    const phones = await getNotificationPhones(incident.severity);
-    
-    const smsMessage = `[TRỰC CA AI] ${incident.severity.toUpperCase()}: ${incident.title}. ${incident.description.substring(0, 100)}`;
-    
-    for (const phone of phones) {
-      console.log(`[SMS] Sending to ${phone}:`);
-      console.log(smsMessage);
-      console.log("---");
-
-      const notification = await storage.createNotification({
-        incidentId: incident.id,
-        channel: "sms",
-        recipient: phone,
-        message: smsMessage,
-      });
-
-      await storage.updateNotificationStatus(
-        notification.id,
-        "sent",
-        new Date(),
-        undefined
-      );
+    if (alert.severity === "down" || alert.severity === "critical") {
+      const smsMessage = `[TRỰC CA AI] ${incident.severity.toUpperCase()}: ${incident.title}. ${incident.description.substring(0, 100)}`;
+      queued += await enqueueNotifications(incident.id, "sms", await getNotificationPhones(incident.severity), smsMessage);
     }
 
-    await simulateDelay(400);
-  } catch (error: any) {
-    console.error("SMS notification failed:", error);
+    console.log(`✓ Queued ${queued} notification(s) for incident #${incident.id}`);
+  } catch (error) {
+    console.error("Notification error:", error);
   }
 }
 
@@ -194,7 +83,3 @@ async function getNotificationPhones(severity: string): Promise<string[]> {
   
   return [];
 }
-
-function simulateDelay(ms: number): Promise<void> {
-  return new Promise(resolve => setTimeout(resolve, ms));
-}
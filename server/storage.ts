@@ -1,6 +1,6 @@
 // Database imports (chỉ cần khi dùng DatabaseStorage)
 // import { db } from "./db";
-// import { eq, desc, and } from "drizzle-orm";
+// import { eq, desc, and, inArray } from "drizzle-orm";
 
 import {
   systems,
@@ -79,7 +79,10 @@ export interface IStorage {
   getNotifications(): Promise<Notification[]>;
   getNotificationsByIncident(incidentId: number): Promise<Notification[]>;
   createNotification(data: InsertNotification): Promise<Notification>;
+  createNotifications(data: InsertNotification[]): Promise<Notification[]>;
+  getPendingNotifications(): Promise<Notification[]>;
   updateNotificationStatus(id: number, status: string, sentAt?: Date, error?: string): Promise<void>;
+  updateNotificationsStatus(ids: number[], status: string, sentAt?: Date, error?: string, attempts?: number): Promise<void>;
 
   getLogAnalysis(): Promise<LogAnalysis[]>;
   createLogAnalysis(data: InsertLogAnalysis): Promise<LogAnalysis>;
@@ -375,6 +378,24 @@ export class InMemoryStorage implements IStorage {
     return notification;
   }
 
+  async createNotifications(data: InsertNotification[]): Promise<Notification[]> {
+    const created = data.map(item => ({
+      id: this.nextId++,
+      ...item,
+      status: "pending",
+      attempts: 0,
+      createdAt: new Date()
+    } as Notification));
+    this.notifications.push(...created);
+    return created;
+  }
+
+  async getPendingNotifications(): Promise<Notification[]> {
+    return this.notifications
+      .filter(n => n.status === "pending" || n.status === "retrying")
+      .sort((a, b) => new Date(a.createdAt).getTime() - new Date(b.createdAt).getTime());
+  }
+
   async updateNotificationStatus(id: number, status: string, sentAt?: Date, error?: string): Promise<void> {
     const index = this.notifications.findIndex(n => n.id === id);
     if (index !== -1) {
@@ -387,6 +408,15 @@ export class InMemoryStorage implements IStorage {
     }
   }
 
+  async updateNotificationsStatus(ids: number[], status: string, sentAt?: Date, error?: string, attempts?: number): Promise<void> {
+    const idSet = new Set(ids);
+    this.notifications = this.notifications.map(n =>
+      idSet.has(n.id)
+        ? { ...n, status, sentAt: sentAt ?? n.sentAt, error: error ?? n.error, attempts: attempts ?? n.attempts } as Notification
+        : n
+    );
+  }
+
   async getLogAnalysis(): Promise<LogAnalysis[]> {
     return [...this.logAnalyses].sort((a, b) =>
       new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime()
@@ -616,6 +646,17 @@ export class DatabaseStorage implements IStorage {
     return result[0];
   }
 
+  async createNotifications(data: InsertNotification[]): Promise<Notification[]> {
+    if (data.length === 0) return [];
+    return await db.insert(notifications).values(data).returning();
+  }
+
+  async getPendingNotifications(): Promise<Notification[]> {
+    return await db.select().from(notifications)
+      .where(inArray(notifications.status, ["pending", "retrying"]))
+      .orderBy(notifications.createdAt);
+  }
+
   async updateNotificationStatus(id: number, status: string, sentAt?: Date, error?: string): Promise<void> {
     const updateData: any = { status };
     if (sentAt) updateData.sentAt = sentAt;
@@ -623,6 +664,15 @@ export class DatabaseStorage implements IStorage {
     await db.update(notifications).set(updateData).where(eq(notifications.id, id));
   }
 
+  async updateNotificationsStatus(ids: number[], status: string, sentAt?: Date, error?: string, attempts?: number): Promise<void> {
+    if (ids.length === 0) return;
+    const updateData: any = { status };
+    if (sentAt) updateData.sentAt = sentAt;
+    if (error) updateData.error = error;
+    if (attempts !== undefined) updateData.attempts = attempts;
+    await db.update(notifications).set(updateData).where(inArray(notifications.id, ids));
+  }
+
   async getLogAnalysis(): Promise<LogAnalysis[]> {
     return await db.select().from(logAnalysis).orderBy(desc(logAnalysis.createdAt));
   }
@@ -0,0 +1,62 @@
+import express from "express";
+
+// Stub Echat / Email / SMS gateway để test notificationDispatcher ở local:
+//   STUB_PORT=5055 STUB_LATENCY_MS=200 STUB_FAILURE_RATE=0.2 npm run stub:notify
+//   ECHAT_API_URL=http://localhost:5055/echat EMAIL_API_URL=http://localhost:5055/email \
+//   SMS_GATEWAY_URL=http://localhost:5055 npm run dev:server
+
+const port = parseInt(process.env.STUB_PORT || "5055", 10);
+let latencyMs = parseInt(process.env.STUB_LATENCY_MS || "100", 10);
+let failureRate = parseFloat(process.env.STUB_FAILURE_RATE || "0");
+
+const received = { echat: 0, email: 0, sms: 0 };
+const requests = { echat: 0, email: 0, sms: 0, failed: 0 };
+
+const app = express();
+app.use(express.json({ limit: "5mb" }));
+
+// Giả lập độ trễ và lỗi 503 ngẫu nhiên cho mọi request gửi
+app.use(async (req, res, next) => {
+  if (req.method !== "POST" || req.path.startsWith("/control")) return next();
+  await new Promise(resolve => setTimeout(resolve, latencyMs));
+  if (Math.random() < failureRate) {
+    requests.failed++;
+    return res.status(503).json({ error: "Stub failure" });
+  }
+  next();
+});
+
+app.post("/echat/rooms/:roomId/messages", (req, res) => {
+  requests.echat++;
+  received.echat++;
+  res.json({ messageId: `${req.params.roomId}-${requests.echat}` });
+});
+
+app.post("/email/send", (req, res) => {
+  const bcc: string[] = req.body?.bcc || [];
+  requests.email++;
+  received.email += bcc.length;
+  res.json({ accepted: bcc.length });
+});
+
+app.post("/sms/batch", (req, res) => {
+  const to: string[] = req.body?.to || [];
+  requests.sms++;
+  received.sms += to.length;
+  res.json({ accepted: to.length });
+});
+
+app.get("/stats", (_req, res) => {
+  res.json({ latencyMs, failureRate, received, requests });
+});
+
+// Đổi hành vi khi đang chạy, ví dụ failureRate=1 để mở circuit breaker rồi về 0 để kiểm tra phục hồi
+app.post("/control", (req, res) => {
+  if (typeof req.body?.latencyMs === "number") latencyMs = req.body.latencyMs;
+  if (typeof req.body?.failureRate === "number") failureRate = req.body.failureRate;
+  res.json({ latencyMs, failureRate });
+});
+
+app.listen(port, () => {
+  console.log(`Notification stub listening on port ${port} (latency ${latencyMs}ms, failure rate ${failureRate})`);
+});
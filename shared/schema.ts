@@ -150,6 +150,7 @@ export const notifications = pgTable("notifications", {
   status: text("status").notNull().default("pending"),
   sentAt: timestamp("sent_at"),
   error: text("error"),
+  attempts: integer("attempts").notNull().default(0),
   createdAt: timestamp("created_at").defaultNow().notNull(),
 });
 
@@ -159,6 +160,7 @@ export const insertNotificationSchema = createInsertSchema(notifications).omit({
   status: true,
   sentAt: true,
   error: true,
+  attempts: true,
 });
 export type InsertNotification = z.infer<typeof insertNotificationSchema>;
 export type Notification = typeof notifications.$inferSelect;